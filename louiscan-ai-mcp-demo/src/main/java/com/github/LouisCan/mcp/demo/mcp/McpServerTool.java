@@ -4,14 +4,17 @@ import com.github.LouisCan.mcp.server.sdk.annotation.McpFunction;
 import com.github.LouisCan.mcp.server.sdk.annotation.McpParam;
 import com.github.LouisCan.mcp.server.sdk.annotation.McpServerEndpoint;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
-@McpServerEndpoint(value = "/mcp", version = "1.0.0", name = "天气查询服务")
+@McpServerEndpoint(value = "/mcp", version = "1.0.0", name = "天气查询服务", warmUp = true)
 public class McpServerTool {
 
-    @McpFunction(name = "getWeather", description = "获取天气信息")
+    @McpFunction(name = "getWeather", description = "获取天气信息", warmUpArguments = "{\"city\":\"杭州\"}")
     public String getWeather(@McpParam(name = "city", description = "城市名称", required = true) String city) {
         return String.format("%s: 晴天，温度25℃", city);
     }
@@ -40,6 +43,17 @@ public class McpServerTool {
         return serverInfos;
     }
 
+    @McpFunction(name = "exportServerAlarms", description = "导出服务器告警报表", mimeType = "text/csv")
+    public InputStream exportServerAlarms() {
+        StringBuilder csv = new StringBuilder("ipAddress,appName,alarmInfo\n");
+        for (ServerInfo info : getServerInfo(null)) {
+            csv.append(info.getIpAddress()).append(',')
+                    .append(info.getAppName()).append(',')
+                    .append(info.getAlarmInfo()).append('\n');
+        }
+        return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
     public static class ServerInfo {
         private String ipAddress;
         private String appName;
@@ -16,4 +16,17 @@ public @interface McpFunction {
      * 函数描述
      */
     String description();
+
+    /**
+     * 预热调用参数，JSON对象格式，如{"city":"杭州"}
+     * <p>仅在{@link McpServerEndpoint#warmUp()}开启时生效，为空则预热阶段不实际调用该函数</p>
+     */
+    String warmUpArguments() default "";
+
+    /**
+     * 二进制返回值的MIME类型，如"image/png"、"audio/wav"、"application/pdf"
+     * <p>仅在函数返回byte[]、{@link java.io.InputStream}、{@link java.nio.file.Path}或{@link java.nio.ByteBuffer}时生效，
+     * image/*生成image内容块，其余类型（包括audio/*）生成嵌入式resource内容块</p>
+     */
+    String mimeType() default "";
 }
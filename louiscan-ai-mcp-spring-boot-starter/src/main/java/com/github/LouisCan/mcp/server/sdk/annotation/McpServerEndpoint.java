@@ -27,4 +27,10 @@ public @interface McpServerEndpoint {
      * @return 服务版本号
      */
     String version() default "";
+
+    /**
+     * 是否在启动时预热服务端点
+     * @return 开启后在应用就绪前预先执行请求解析、工具调用与响应构建流程
+     */
+    boolean warmUp() default false;
 }
@@ -0,0 +1,162 @@
+package com.github.LouisCan.mcp.server.sdk.support;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MCP工具返回的二进制内容
+ *
+ * <p>包装byte[]、{@link ByteBuffer}、{@link InputStream}或{@link Path}类型的工具返回值，
+ * 在响应序列化时通过{@link JsonGenerator#writeBinary(InputStream, int)}分块进行Base64编码并直接写入输出流，
+ * 避免将完整的Base64字符串缓存在内存中。</p>
+ *
+ * <p>响应体以{@link McpResponse}包装，二进制内容只在响应真正写出时被读取。
+ * {@link InputStream}只能读取一次，读取后自动关闭，再次序列化将抛出异常而不是输出空数据。</p>
+ *
+ * @author LouisCan
+ * @version 1.0.0
+ */
+@Getter
+public class McpBinaryContent implements JsonSerializable {
+
+    /**
+     * 原始二进制数据
+     */
+    private final Object source;
+
+    /**
+     * 内容的MIME类型
+     */
+    private final String mimeType;
+
+    /**
+     * 输入流是否已被读取
+     */
+    private final AtomicBoolean consumed = new AtomicBoolean(false);
+
+    /**
+     * 构造方法
+     * @param source 原始二进制数据
+     * @param mimeType 内容的MIME类型
+     */
+    public McpBinaryContent(Object source, String mimeType) {
+        this.source = source;
+        this.mimeType = mimeType;
+    }
+
+    /**
+     * 判断工具返回值是否为支持的二进制类型
+     *
+     * @param value 工具返回值
+     * @return 是否为byte[]、ByteBuffer、InputStream或Path
+     */
+    public static boolean isBinary(Object value) {
+        return value instanceof byte[]
+                || value instanceof ByteBuffer
+                || value instanceof InputStream
+                || value instanceof Path;
+    }
+
+    /**
+     * 解析二进制内容的MIME类型
+     *
+     * <p>优先使用{@link com.github.LouisCan.mcp.server.sdk.annotation.McpFunction#mimeType()}声明的类型，
+     * 未声明时对{@link Path}类型尝试按文件探测，仍无法确定时返回{@link McpConstants#DEFAULT_BINARY_MIME_TYPE}。</p>
+     *
+     * @param value 工具返回值
+     * @param declaredMimeType 函数声明的MIME类型
+     * @return MIME类型
+     */
+    public static String resolveMimeType(Object value, String declaredMimeType) {
+        if (declaredMimeType != null && !declaredMimeType.isEmpty()) {
+            return declaredMimeType;
+        }
+        if (value instanceof Path) {
+            try {
+                String probed = Files.probeContentType((Path) value);
+                if (probed != null) {
+                    return probed;
+                }
+            } catch (IOException ignored) {
+                // 探测失败时使用默认类型
+            }
+        }
+        return McpConstants.DEFAULT_BINARY_MIME_TYPE;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (source instanceof byte[]) {
+            gen.writeBinary((byte[]) source);
+        } else if (source instanceof ByteBuffer) {
+            ByteBuffer buffer = ((ByteBuffer) source).duplicate();
+            if (buffer.hasArray()) {
+                gen.writeBinary(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            } else {
+                gen.writeBinary(new ByteBufferInputStream(buffer), buffer.remaining());
+            }
+        } else if (source instanceof Path) {
+            Path path = (Path) source;
+            long size = Files.size(path);
+            try (InputStream in = Files.newInputStream(path)) {
+                gen.writeBinary(in, size <= Integer.MAX_VALUE ? (int) size : -1);
+            }
+        } else if (source instanceof InputStream) {
+            if (!consumed.compareAndSet(false, true)) {
+                throw new IllegalStateException("二进制输入流已被读取, 不能重复序列化");
+            }
+            try (InputStream in = (InputStream) source) {
+                gen.writeBinary(in, -1);
+            }
+        } else {
+            gen.writeNull();
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(this, JsonToken.VALUE_STRING));
+        serialize(gen, serializers);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+
+    /**
+     * 以输入流方式按块读取堆外{@link ByteBuffer}，避免一次性复制到堆内数组
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+    }
+}
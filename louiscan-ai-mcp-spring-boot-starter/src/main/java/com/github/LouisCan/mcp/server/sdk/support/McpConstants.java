@@ -16,9 +16,38 @@ public class McpConstants {
     public static final String METHOD_INITIALIZE = "initialize";
     public static final String METHOD_TOOLS_LIST = "tools/list";
     public static final String METHOD_TOOLS_CALL = "tools/call";
+    public static final String METHOD_TOOLS_PIPELINE = "tools/pipeline";
 
     public static final String PROTOCOL_VERSION = "2024-11-05";
 
+    public static final String CONTENT_TYPE_TEXT = "text";
+    public static final String CONTENT_TYPE_IMAGE = "image";
+    public static final String CONTENT_TYPE_RESOURCE = "resource";
+    public static final String DEFAULT_BINARY_MIME_TYPE = "application/octet-stream";
+    public static final String RESOURCE_URI_PREFIX = "resource://";
+
+    public static final String PIPELINE_REF = "$ref";
+    public static final String PIPELINE_ITEM = "$item";
+    public static final String PIPELINE_POINTER = "pointer";
+    public static final int PIPELINE_MAX_STEPS = 16;
+    public static final int PIPELINE_MAX_DEPTH = 4;
+    public static final int PIPELINE_MAX_FAN_OUT = 32;
+    public static final String PIPELINE_EXECUTOR_BEAN_NAME = "mcpPipelineExecutor";
+    public static final String PROPERTY_PIPELINE_POOL_SIZE = "louiscan.mcp.pipeline.pool-size";
+    public static final String PROPERTY_PIPELINE_TIMEOUT_MILLIS = "louiscan.mcp.pipeline.timeout-millis";
+    public static final String PROPERTY_PIPELINE_MAX_CONCURRENCY = "louiscan.mcp.pipeline.max-concurrency";
+    public static final int PIPELINE_POOL_SIZE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    public static final long PIPELINE_TIMEOUT_MILLIS = 30000L;
+    public static final int PIPELINE_MAX_CONCURRENCY = 8;
+
+    public static final String WARM_UP_REQUEST_ID = "mcp-warm-up";
+    public static final String PROPERTY_WARM_UP_ITERATIONS = "louiscan.mcp.warm-up.iterations";
+    /**
+     * 默认预热调用次数，需超过JDK反射膨胀阈值（sun.reflect.inflationThreshold，默认15）才会生成字节码访问器。
+     * 该阈值仅适用于JDK 17及以下版本，JDK 18起反射基于MethodHandle实现，可通过{@link #PROPERTY_WARM_UP_ITERATIONS}调低
+     */
+    public static final int WARM_UP_ITERATIONS = 20;
+
     public static final int ERROR_CODE_METHOD_NOT_FOUND = -531;
     public static final int ERROR_CODE_INVALID_PARAMS = -532;
     public static final int ERROR_CODE_INTERNAL_ERROR = -533;
@@ -26,4 +55,7 @@ public class McpConstants {
     public static final String ERROR_MSG_UNSUPPORTED_METHOD = "本服务器不支持 %s 方法";
     public static final String ERROR_MSG_MISSING_PARAM = "缺少必需参数: %s";
     public static final String ERROR_MSG_TOOL_EXECUTION = "工具 %s 执行时发生异常%s";
+    public static final String ERROR_MSG_INVALID_PIPELINE = "无效的工具流水线: %s";
+    public static final String ERROR_MSG_DEPENDENCY_FAILED = "依赖步骤 %s 执行失败";
+    public static final String ERROR_MSG_PIPELINE_TIMEOUT = "工具 %s 未能在流水线超时时间 %d ms 内完成";
 }
@@ -31,6 +31,16 @@ public class McpFunctionInfo {
      */
     private final List<ParamInfo> params;
 
+    /**
+     * 预热调用参数，对应{@link McpFunction#warmUpArguments()}
+     */
+    private final String warmUpArguments;
+
+    /**
+     * 二进制返回值的MIME类型，对应{@link McpFunction#mimeType()}
+     */
+    private final String mimeType;
+
     /**
      * 构造方法
      * @param name 功能名称
@@ -39,10 +49,26 @@ public class McpFunctionInfo {
      * @param params 参数信息列表
      */
     public McpFunctionInfo(String name, String description, Method method, List<ParamInfo> params) {
+        this(name, description, method, params, "", "");
+    }
+
+    /**
+     * 构造方法
+     * @param name 功能名称
+     * @param description 功能描述
+     * @param method 方法对象
+     * @param params 参数信息列表
+     * @param warmUpArguments 预热调用参数
+     * @param mimeType 二进制返回值的MIME类型
+     */
+    public McpFunctionInfo(String name, String description, Method method, List<ParamInfo> params,
+                           String warmUpArguments, String mimeType) {
         this.name = name;
         this.description = description;
         this.method = method;
         this.params = params;
+        this.warmUpArguments = warmUpArguments;
+        this.mimeType = mimeType;
     }
 
     /**
@@ -0,0 +1,29 @@
+package com.github.LouisCan.mcp.server.sdk.support;
+
+import lombok.Getter;
+
+/**
+ * 调用MCP工具时缺少必需参数
+ *
+ * <p>与工具执行过程中抛出的异常区分开，以便调用方按参数错误而非执行异常进行处理。</p>
+ *
+ * @author LouisCan
+ * @version 1.0.0
+ */
+@Getter
+public class McpMissingParamException extends RuntimeException {
+
+    /**
+     * 缺少的参数名称
+     */
+    private final String paramName;
+
+    /**
+     * 构造方法
+     * @param paramName 缺少的参数名称
+     */
+    public McpMissingParamException(String paramName) {
+        super(String.format(McpConstants.ERROR_MSG_MISSING_PARAM, paramName));
+        this.paramName = paramName;
+    }
+}
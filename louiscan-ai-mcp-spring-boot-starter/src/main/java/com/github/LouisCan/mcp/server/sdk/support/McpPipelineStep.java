@@ -0,0 +1,118 @@
+package com.github.LouisCan.mcp.server.sdk.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 工具流水线中的单个步骤
+ *
+ * <p>对应{@code tools/pipeline}请求中{@code steps}数组的一个元素，格式如下：</p>
+ * <pre>
+ * {
+ *   "id": "weather",
+ *   "name": "getWeather",
+ *   "forEach": {"$ref": "servers"},
+ *   "arguments": {"city": {"$item": "/appName"}}
+ * }
+ * </pre>
+ *
+ * <p>参数值可以是普通值，也可以是引用：{@code {"$ref": "步骤ID", "pointer": "/0/ipAddress"}}引用前序步骤的返回值，
+ * {@code {"$item": "/ipAddress"}}引用{@code forEach}当前遍历的元素，pointer均为JSON Pointer格式，为空时引用整体。
+ * pointer基于步骤结果中的{@code structuredContent}解析，即返回值的JSON结构，forEach步骤为各元素结果组成的数组。</p>
+ *
+ * @author LouisCan
+ * @version 1.0.0
+ */
+@Getter
+public class McpPipelineStep {
+
+    /**
+     * 步骤ID，在同一流水线内唯一
+     */
+    private final String id;
+
+    /**
+     * 调用的工具函数
+     */
+    private final McpFunctionInfo function;
+
+    /**
+     * 调用参数，可包含引用
+     */
+    private final ObjectNode arguments;
+
+    /**
+     * 遍历来源引用，为null时只调用一次
+     */
+    private final JsonNode forEach;
+
+    /**
+     * 依赖的步骤ID集合
+     */
+    private final Set<String> dependencies = new LinkedHashSet<>();
+
+    /**
+     * 构造方法
+     * @param id 步骤ID
+     * @param function 调用的工具函数
+     * @param arguments 调用参数
+     * @param forEach 遍历来源引用
+     */
+    public McpPipelineStep(String id, McpFunctionInfo function, ObjectNode arguments, JsonNode forEach) {
+        this.id = id;
+        this.function = function;
+        this.arguments = arguments;
+        this.forEach = forEach;
+
+        if (forEach != null) {
+            dependencies.add(refOf(forEach));
+        }
+        if (arguments != null) {
+            arguments.elements().forEachRemaining(value -> {
+                if (isRef(value)) {
+                    dependencies.add(refOf(value));
+                } else if (isItem(value) && forEach == null) {
+                    throw new IllegalArgumentException("步骤 " + id + " 未声明forEach, 不能使用" + McpConstants.PIPELINE_ITEM);
+                }
+            });
+        }
+    }
+
+    /**
+     * 判断参数值是否为步骤引用
+     */
+    public static boolean isRef(JsonNode value) {
+        return value != null && value.isObject() && value.has(McpConstants.PIPELINE_REF);
+    }
+
+    /**
+     * 判断参数值是否为遍历元素引用
+     */
+    public static boolean isItem(JsonNode value) {
+        return value != null && value.isObject() && value.has(McpConstants.PIPELINE_ITEM);
+    }
+
+    /**
+     * 获取引用的步骤ID
+     */
+    public static String refOf(JsonNode value) {
+        if (!isRef(value)) {
+            throw new IllegalArgumentException("引用必须是包含" + McpConstants.PIPELINE_REF + "的对象");
+        }
+        return value.get(McpConstants.PIPELINE_REF).asText();
+    }
+
+    /**
+     * 获取引用的JSON Pointer，未指定时返回空字符串
+     */
+    public static String pointerOf(JsonNode value) {
+        if (isItem(value)) {
+            return value.get(McpConstants.PIPELINE_ITEM).asText();
+        }
+        return value.has(McpConstants.PIPELINE_POINTER) ? value.get(McpConstants.PIPELINE_POINTER).asText() : "";
+    }
+}
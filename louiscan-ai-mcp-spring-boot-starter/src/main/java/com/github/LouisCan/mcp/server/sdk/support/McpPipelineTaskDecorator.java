@@ -0,0 +1,61 @@
+package com.github.LouisCan.mcp.server.sdk.support;
+
+import org.slf4j.MDC;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+
+/**
+ * 工具流水线任务装饰器
+ *
+ * <p>流水线中的工具在{@code mcp-pipeline-*}线程上执行，为使其与{@code tools/call}看到一致的请求上下文，
+ * 提交任务时将调用线程的以下上下文传递到执行线程，任务结束后恢复执行线程原有状态：</p>
+ * <ul>
+ *     <li>{@link RequestContextHolder}中的请求属性</li>
+ *     <li>{@link LocaleContextHolder}中的区域信息</li>
+ *     <li>SLF4J的MDC</li>
+ * </ul>
+ *
+ * <p>其他基于ThreadLocal的上下文（如Spring Security的SecurityContext、事务同步）不会传递，
+ * 依赖这些上下文的工具应通过{@code tools/call}调用。</p>
+ *
+ * @author LouisCan
+ * @version 1.0.0
+ */
+public class McpPipelineTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        LocaleContext localeContext = LocaleContextHolder.getLocaleContext();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        return () -> {
+            RequestAttributes previousRequestAttributes = RequestContextHolder.getRequestAttributes();
+            LocaleContext previousLocaleContext = LocaleContextHolder.getLocaleContext();
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            LocaleContextHolder.setLocaleContext(localeContext);
+            setMdc(mdc);
+            try {
+                runnable.run();
+            } finally {
+                RequestContextHolder.setRequestAttributes(previousRequestAttributes);
+                LocaleContextHolder.setLocaleContext(previousLocaleContext);
+                setMdc(previousMdc);
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> contextMap) {
+        if (contextMap == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(contextMap);
+        }
+    }
+}
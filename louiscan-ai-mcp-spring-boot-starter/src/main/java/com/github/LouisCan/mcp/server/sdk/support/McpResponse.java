@@ -0,0 +1,59 @@
+package com.github.LouisCan.mcp.server.sdk.support;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * MCP服务端点的JSON-RPC响应
+ *
+ * <p>响应中可能包含延迟写入的{@link McpBinaryContent}，而{@link ObjectNode#toString()}会完整序列化其中的二进制内容，
+ * 在Spring MVC等框架记录DEBUG日志时提前读取输入流并生成完整的Base64字符串。
+ * 因此响应体以本类包装后返回：{@link #toString()}只输出简要信息，
+ * 响应内容仅在由Jackson写出时通过{@link #serialize(JsonGenerator, SerializerProvider)}序列化一次。</p>
+ *
+ * @author LouisCan
+ * @version 1.0.0
+ */
+@Getter
+public class McpResponse implements JsonSerializable {
+
+    /**
+     * 响应内容，调用方不应对其调用toString()
+     */
+    private final ObjectNode body;
+
+    /**
+     * 构造方法
+     * @param body 响应内容
+     */
+    public McpResponse(ObjectNode body) {
+        this.body = body;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        serializers.defaultSerializeValue(body, gen);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(this, JsonToken.START_OBJECT));
+        serialize(gen, serializers);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    @Override
+    public String toString() {
+        return "McpResponse{id=" + body.path(McpConstants.JSON_RPC_ID).asText()
+                + (body.has(McpConstants.JSON_RPC_ERROR) ? ", error=" + body.get(McpConstants.JSON_RPC_ERROR) : ", result")
+                + "}";
+    }
+}
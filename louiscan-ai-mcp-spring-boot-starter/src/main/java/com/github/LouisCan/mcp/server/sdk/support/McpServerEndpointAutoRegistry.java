@@ -16,15 +16,22 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.boot.autoconfigure.web.servlet.WebMvcProperties;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 import org.springframework.web.util.pattern.PathPatternParser;
 
@@ -34,12 +41,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
-public class McpServerEndpointAutoRegistry implements BeanPostProcessor, ApplicationContextAware, BeanFactoryAware {
+public class McpServerEndpointAutoRegistry implements BeanPostProcessor, ApplicationContextAware, BeanFactoryAware,
+        ApplicationListener<ApplicationStartedEvent> {
 
     private ApplicationContext applicationContext;
     private BeanFactory        beanFactory;
     private WebMvcProperties   webMvcProperties;
 
+    private final List<McpStreamableHttpHandler> warmUpHandlers = new ArrayList<>();
+
 
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
@@ -76,6 +86,12 @@ public class McpServerEndpointAutoRegistry implements BeanPostProcessor, Applica
         McpServerEndpoint annotation = beanClass.getAnnotation(McpServerEndpoint.class);
         if (annotation != null) {
             String path = annotation.value();
+            // 流水线配置错误时直接中止启动，而不是在运行时表现为超时
+            ThreadPoolTaskExecutor pipelineExecutor = getPipelineExecutor();
+            long pipelineTimeoutMillis = getPositiveProperty(
+                    McpConstants.PROPERTY_PIPELINE_TIMEOUT_MILLIS, Long.class, McpConstants.PIPELINE_TIMEOUT_MILLIS);
+            int pipelineMaxConcurrency = getPositiveProperty(
+                    McpConstants.PROPERTY_PIPELINE_MAX_CONCURRENCY, Integer.class, McpConstants.PIPELINE_MAX_CONCURRENCY);
             try {
                 List<McpFunctionInfo> functionInfos = collectMcpFunctions(beanClass);
 
@@ -87,12 +103,21 @@ public class McpServerEndpointAutoRegistry implements BeanPostProcessor, Applica
                 beanRegistry.registerBeanDefinition(handlerBeanName, beanDefinitionBuilder.getBeanDefinition());
 
                 McpStreamableHttpHandler handler = (McpStreamableHttpHandler) applicationContext.getBean(handlerBeanName);
+                Environment environment = applicationContext.getEnvironment();
                 handler.setName(annotation.name());
                 handler.setVersion(annotation.version());
                 handler.setTargetBean(bean);
                 handler.setFunctionInfos(functionInfos);
+                handler.setWarmUpIterations(environment.getProperty(
+                        McpConstants.PROPERTY_WARM_UP_ITERATIONS, Integer.class, McpConstants.WARM_UP_ITERATIONS));
+                handler.setPipelineExecutor(pipelineExecutor);
+                handler.setPipelineTimeoutMillis(pipelineTimeoutMillis);
+                handler.setPipelineMaxConcurrency(pipelineMaxConcurrency);
 
                 registerMcpServerEndpoint(path, handler);
+                if (annotation.warmUp()) {
+                    warmUpHandlers.add(handler);
+                }
 
                 log.info("Mcp服务接口创建成功: {}", path);
             } catch (Exception e) {
@@ -103,6 +128,79 @@ public class McpServerEndpointAutoRegistry implements BeanPostProcessor, Applica
     }
 
 
+    /**
+     * 应用启动完成后预热MCP服务端点
+     *
+     * <p>该事件在Spring Boot发布{@code ReadinessState.ACCEPTING_TRAFFIC}之前同步触发，
+     * 因此预热完成前应用不会被标记为就绪，首批真实请求不再承担冷启动开销。</p>
+     *
+     * @param event 应用启动完成事件
+     */
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        if (warmUpHandlers.isEmpty()) {
+            return;
+        }
+        List<HttpMessageConverter<?>> messageConverters =
+                applicationContext.getBean(RequestMappingHandlerAdapter.class).getMessageConverters();
+        for (McpStreamableHttpHandler handler : warmUpHandlers) {
+            long start = System.currentTimeMillis();
+            try {
+                handler.warmUp(messageConverters);
+                log.info("Mcp服务接口预热完成: {}, 耗时 {} ms", handler.getName(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                log.warn("Mcp服务接口预热失败: {}", e.getMessage(), e);
+            }
+        }
+        warmUpHandlers.clear();
+    }
+
+
+    /**
+     * 获取工具流水线线程池
+     *
+     * <p>首次调用时注册为Spring Bean，由容器负责初始化与关闭，所有MCP服务端点共享该线程池。
+     * 线程数可通过{@link McpConstants#PROPERTY_PIPELINE_POOL_SIZE}配置，
+     * 调用线程的请求上下文由{@link McpPipelineTaskDecorator}传递到流水线线程。</p>
+     *
+     * @return 流水线线程池
+     */
+    private ThreadPoolTaskExecutor getPipelineExecutor() {
+        BeanDefinitionRegistry beanRegistry = (BeanDefinitionRegistry) beanFactory;
+        if (!beanRegistry.containsBeanDefinition(McpConstants.PIPELINE_EXECUTOR_BEAN_NAME)) {
+            int poolSize = getPositiveProperty(
+                    McpConstants.PROPERTY_PIPELINE_POOL_SIZE, Integer.class, McpConstants.PIPELINE_POOL_SIZE);
+            BeanDefinitionBuilder beanDefinitionBuilder = BeanDefinitionBuilder
+                    .genericBeanDefinition(ThreadPoolTaskExecutor.class)
+                    .addPropertyValue("corePoolSize", poolSize)
+                    .addPropertyValue("maxPoolSize", poolSize)
+                    .addPropertyValue("allowCoreThreadTimeOut", true)
+                    .addPropertyValue("threadNamePrefix", "mcp-pipeline-")
+                    .addPropertyValue("taskDecorator", new McpPipelineTaskDecorator());
+            beanRegistry.registerBeanDefinition(McpConstants.PIPELINE_EXECUTOR_BEAN_NAME, beanDefinitionBuilder.getBeanDefinition());
+        }
+        return applicationContext.getBean(McpConstants.PIPELINE_EXECUTOR_BEAN_NAME, ThreadPoolTaskExecutor.class);
+    }
+
+
+    /**
+     * 读取必须为正数的配置项
+     *
+     * @param key 配置项名称
+     * @param type 配置项类型
+     * @param defaultValue 默认值
+     * @return 配置值
+     * @throws BeanInitializationException 配置值小于等于0时抛出
+     */
+    private <T extends Number> T getPositiveProperty(String key, Class<T> type, T defaultValue) {
+        T value = applicationContext.getEnvironment().getProperty(key, type, defaultValue);
+        if (value.longValue() <= 0) {
+            throw new BeanInitializationException(key + " 必须大于0, 当前值: " + value);
+        }
+        return value;
+    }
+
+
     /**
      * 收集类中所有MCP函数信息
      *
@@ -120,7 +218,9 @@ public class McpServerEndpointAutoRegistry implements BeanPostProcessor, Applica
             McpFunction mcpFunction = method.getAnnotation(McpFunction.class);
             if (mcpFunction != null) {
                 List<McpFunctionInfo.ParamInfo> paramInfos = collectFunctionParamInfos(method);
-                McpFunctionInfo functionInfo = new McpFunctionInfo(mcpFunction.name(), mcpFunction.description(), method, paramInfos);
+                McpFunctionInfo functionInfo = new McpFunctionInfo(
+                        mcpFunction.name(), mcpFunction.description(), method, paramInfos,
+                        mcpFunction.warmUpArguments(), mcpFunction.mimeType());
                 functionInfos.add(functionInfo);
             }
         }
@@ -1,21 +1,45 @@
 package com.github.LouisCan.mcp.server.sdk.support;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpOutputMessage;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.server.MethodNotAllowedException;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 @Data
@@ -26,9 +50,23 @@ public class McpStreamableHttpHandler {
     private String version;
     private List<McpFunctionInfo> functionInfos = new ArrayList<>();
     private Object targetBean;
+    private int warmUpIterations = McpConstants.WARM_UP_ITERATIONS;
+    private AsyncTaskExecutor pipelineExecutor;
+    private long pipelineTimeoutMillis = McpConstants.PIPELINE_TIMEOUT_MILLIS;
+    private int pipelineMaxConcurrency = McpConstants.PIPELINE_MAX_CONCURRENCY;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private static final OutputStream DISCARDING_OUTPUT_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
     /**
      * 处理GET请求的方法。
      * 当前实现中，该方法会抛出MethodNotAllowedException，表示GET方法不被允许。
@@ -39,7 +77,22 @@ public class McpStreamableHttpHandler {
         throw new MethodNotAllowedException(HttpMethod.GET, null);
     }
 
-    public ResponseEntity<ObjectNode> handlePost(@RequestBody String body) throws Exception {
+    /**
+     * 处理POST请求的方法。
+     * 响应体以{@link McpResponse}包装，避免框架日志调用toString()时提前读取其中的二进制内容。
+     *
+     * @param body JSON-RPC请求体
+     * @return JSON-RPC响应
+     */
+    public ResponseEntity<McpResponse> handlePost(@RequestBody String body) throws Exception {
+        ResponseEntity<ObjectNode> response = dispatch(body);
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .body(response.getBody() == null ? null : new McpResponse(response.getBody()));
+    }
+
+
+    private ResponseEntity<ObjectNode> dispatch(String body) {
         try {
             ObjectNode request = objectMapper.readValue(body, ObjectNode.class);
             if (request == null || !request.has("id")) {
@@ -55,6 +108,8 @@ public class McpStreamableHttpHandler {
                     return handleListTools(id);
                 case McpConstants.METHOD_TOOLS_CALL:
                     return handleCallTool(request);
+                case McpConstants.METHOD_TOOLS_PIPELINE:
+                    return handlePipeline(request);
                 default:
                     return handleUnsupportedMethod(id, method);
             }
@@ -64,6 +119,109 @@ public class McpStreamableHttpHandler {
     }
 
 
+    /**
+     * 预热服务端点。
+     * 使用合成的JSON-RPC请求执行一次initialize与tools/list流程，并按{@link #warmUpIterations}反复执行tools/call流程，
+     * 最后执行一次tools/pipeline流程，预先完成请求解析、反射调用访问器生成以及返回值JSON树转换。
+     * 响应通过应用实际使用的HTTP消息转换器写出，预热其ObjectMapper中的序列化器缓存。
+     * 仅对声明了预热参数的函数执行真实调用，未声明的函数不会被调用，以免产生业务副作用。
+     *
+     * @param messageConverters Spring MVC使用的HTTP消息转换器
+     * @throws Exception 构建预热请求失败时抛出
+     */
+    public void warmUp(List<HttpMessageConverter<?>> messageConverters) throws Exception {
+        HttpMessageConverter<Object> converter = findResponseConverter(messageConverters);
+        warmUpRequest(buildWarmUpRequest(McpConstants.METHOD_INITIALIZE, null), converter, true);
+        warmUpRequest(buildWarmUpRequest(McpConstants.METHOD_TOOLS_LIST, null), converter, true);
+
+        List<String> requests = new ArrayList<>();
+        List<ObjectNode> pipelineSteps = new ArrayList<>();
+
+        for (McpFunctionInfo functionInfo : functionInfos) {
+            if (!StringUtils.hasText(functionInfo.getWarmUpArguments())) {
+                continue;
+            }
+            JsonNode arguments;
+            try {
+                arguments = objectMapper.readTree(functionInfo.getWarmUpArguments());
+            } catch (JsonProcessingException e) {
+                log.warn("工具 {} 的预热参数不是合法的JSON, 跳过预热: {}", functionInfo.getName(), e.getOriginalMessage());
+                continue;
+            }
+            if (!arguments.isObject()) {
+                log.warn("工具 {} 的预热参数不是JSON对象, 跳过预热", functionInfo.getName());
+                continue;
+            }
+            ObjectNode params = objectMapper.createObjectNode();
+            params.put("name", functionInfo.getName());
+            params.set("arguments", arguments);
+            requests.add(buildWarmUpRequest(McpConstants.METHOD_TOOLS_CALL, params));
+
+            ObjectNode step = params.deepCopy();
+            step.put("id", functionInfo.getName());
+            pipelineSteps.add(step);
+        }
+
+        // 反射调用超过JVM膨胀阈值后才会生成字节码访问器，因此需重复执行多次
+        for (int i = 0; i < warmUpIterations; i++) {
+            for (String request : requests) {
+                warmUpRequest(request, converter, i == 0);
+            }
+        }
+
+        // 流水线会将返回值转换为JSON树，需单独预热返回值类型的序列化器
+        if (pipelineExecutor != null) {
+            for (int i = 0; i < pipelineSteps.size(); i += McpConstants.PIPELINE_MAX_STEPS) {
+                ObjectNode params = objectMapper.createObjectNode();
+                params.putArray("steps").addAll(pipelineSteps.subList(i, Math.min(i + McpConstants.PIPELINE_MAX_STEPS, pipelineSteps.size())));
+                warmUpRequest(buildWarmUpRequest(McpConstants.METHOD_TOOLS_PIPELINE, params), converter, true);
+            }
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private HttpMessageConverter<Object> findResponseConverter(List<HttpMessageConverter<?>> messageConverters) {
+        if (messageConverters != null) {
+            for (HttpMessageConverter<?> messageConverter : messageConverters) {
+                if (messageConverter.canWrite(McpResponse.class, MediaType.APPLICATION_JSON)) {
+                    return (HttpMessageConverter<Object>) messageConverter;
+                }
+            }
+        }
+        return null;
+    }
+
+
+    private void warmUpRequest(String request, HttpMessageConverter<Object> converter, boolean reportFailure) throws Exception {
+        ResponseEntity<McpResponse> response = handlePost(request);
+        if (reportFailure && (response.getBody() == null || response.getBody().getBody().has(McpConstants.JSON_RPC_ERROR))) {
+            log.warn("预热请求执行失败: {}, 响应: {}", request, response.getBody());
+        }
+        if (response.getBody() == null) {
+            return;
+        }
+        // 写出到空输出流，预热响应序列化器并释放二进制结果持有的流
+        if (converter != null) {
+            converter.write(response.getBody(), MediaType.APPLICATION_JSON, new DiscardingHttpOutputMessage());
+        } else {
+            objectMapper.writeValue(DISCARDING_OUTPUT_STREAM, response.getBody());
+        }
+    }
+
+
+    private String buildWarmUpRequest(String method, ObjectNode params) throws Exception {
+        ObjectNode request = objectMapper.createObjectNode();
+        request.put("jsonrpc", McpConstants.JSON_RPC_VERSION);
+        request.put(McpConstants.JSON_RPC_ID, McpConstants.WARM_UP_REQUEST_ID);
+        request.put("method", method);
+        if (params != null) {
+            request.set(McpConstants.JSON_RPC_PARAMS, params);
+        }
+        return objectMapper.writeValueAsString(request);
+    }
+
+
     private ResponseEntity<ObjectNode> handleInitialize(String id) {
         ObjectNode response = objectMapper.createObjectNode();
         response.put(McpConstants.JSON_RPC_VERSION, McpConstants.JSON_RPC_VERSION);
@@ -72,6 +230,11 @@ public class McpStreamableHttpHandler {
         ObjectNode result = response.putObject(McpConstants.JSON_RPC_RESULT);
         result.put("protocolVersion", McpConstants.PROTOCOL_VERSION);
         ObjectNode capabilities = result.putObject("capabilities");
+        ObjectNode pipeline = capabilities.putObject("experimental").putObject("toolsPipeline");
+        pipeline.put("maxSteps", McpConstants.PIPELINE_MAX_STEPS);
+        pipeline.put("maxDepth", McpConstants.PIPELINE_MAX_DEPTH);
+        pipeline.put("maxFanOut", McpConstants.PIPELINE_MAX_FAN_OUT);
+        pipeline.put("timeoutMillis", pipelineTimeoutMillis);
 
         ObjectNode serverInfo = result.putObject("serverInfo");
         serverInfo.put("name", name);
@@ -166,47 +329,20 @@ public class McpStreamableHttpHandler {
             }
         }
 
-        McpFunctionInfo targetFunction = null;
-        for (McpFunctionInfo functionInfo : functionInfos) {
-            if (functionInfo.getName().equals(toolName)) {
-                targetFunction = functionInfo;
-                break;
-            }
-        }
+        McpFunctionInfo targetFunction = findFunction(toolName);
 
         if (targetFunction != null && targetBean != null) {
             try {
-                Method method = targetFunction.getMethod();
-                Parameter[] parameters = method.getParameters();
-                Object[] args = new Object[parameters.length];
-
-                for (int i = 0; i < parameters.length; i++) {
-                    McpFunctionInfo.ParamInfo paramInfo = targetFunction.getParams().get(i);
-                    String paramName = paramInfo.getName();
-
-                    if (params != null && params.has(paramName)) {
-                        args[i] = params.get(paramName).asText();
-                    } else if (paramInfo.isRequired()) {
-                        log.warn("缺少必需参数: {}", paramName);
-                        ObjectNode error = response.putObject("error");
-                        error.put(McpConstants.JSON_RPC_CODE, McpConstants.ERROR_CODE_INVALID_PARAMS);
-                        error.put(McpConstants.JSON_RPC_MESSAGE, "缺少必需参数: " + paramName);
-                        return ResponseEntity.ok(response);
-                    }
-                }
-
-                Object result = method.invoke(targetBean, args);
+                Object result = invokeTool(targetFunction, params);
 
                 ObjectNode resultNode = response.putObject("result");
+                resultNode.set("content", buildContent(targetFunction, result));
 
-                List<Map<String, Object>> content = new ArrayList<>();
-                Map<String, Object> textContent = new HashMap<>();
-                textContent.put("type", "text");
-                textContent.put("text", result != null ? result.toString() : "");
-                content.add(textContent);
-
-                resultNode.set("content", objectMapper.valueToTree(content));
-
+            } catch (McpMissingParamException e) {
+                log.warn(e.getMessage());
+                ObjectNode error = response.putObject("error");
+                error.put(McpConstants.JSON_RPC_CODE, McpConstants.ERROR_CODE_INVALID_PARAMS);
+                error.put(McpConstants.JSON_RPC_MESSAGE, e.getMessage());
             } catch (Exception e) {
                 log.error("工具 {} 执行时发生异常", toolName, e);
                 ObjectNode error = response.putObject("error");
@@ -222,4 +358,473 @@ public class McpStreamableHttpHandler {
 
         return ResponseEntity.ok(response);
     }
+
+
+    /**
+     * 处理工具流水线请求。
+     * 在一次请求内执行由多个工具调用组成的有向无环图，步骤之间通过$ref、$item引用传递返回值，
+     * 按依赖关系分层执行，同层步骤及forEach展开的调用在进程内并行执行，所有结果在同一响应中返回，
+     * 避免客户端为每一跳工具调用发起一次完整往返。整个流水线受{@link #pipelineTimeoutMillis}限制。
+     * 工具在流水线线程上执行，传递的请求上下文见{@link McpPipelineTaskDecorator}。
+     *
+     * @param request JSON-RPC请求，params.steps为步骤数组，格式见{@link McpPipelineStep}
+     * @return 包含每个步骤执行结果的响应
+     */
+    private ResponseEntity<ObjectNode> handlePipeline(ObjectNode request) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put(McpConstants.JSON_RPC_VERSION, McpConstants.JSON_RPC_VERSION);
+        response.put(McpConstants.JSON_RPC_ID, request.get("id").asText());
+
+        if (pipelineExecutor == null) {
+            log.warn("未配置工具流水线线程池");
+            ObjectNode error = response.putObject(McpConstants.JSON_RPC_ERROR);
+            error.put(McpConstants.JSON_RPC_CODE, McpConstants.ERROR_CODE_INTERNAL_ERROR);
+            error.put(McpConstants.JSON_RPC_MESSAGE, "未配置工具流水线线程池");
+            return ResponseEntity.ok(response);
+        }
+
+        List<McpPipelineStep> steps;
+        List<List<McpPipelineStep>> levels;
+        try {
+            steps = parsePipelineSteps(request.get(McpConstants.JSON_RPC_PARAMS));
+            levels = planPipeline(steps);
+        } catch (IllegalArgumentException e) {
+            log.warn("无效的工具流水线: {}", e.getMessage());
+            ObjectNode error = response.putObject(McpConstants.JSON_RPC_ERROR);
+            error.put(McpConstants.JSON_RPC_CODE, McpConstants.ERROR_CODE_INVALID_PARAMS);
+            error.put(McpConstants.JSON_RPC_MESSAGE, String.format(McpConstants.ERROR_MSG_INVALID_PIPELINE, e.getMessage()));
+            return ResponseEntity.ok(response);
+        }
+
+        long deadline = System.currentTimeMillis() + pipelineTimeoutMillis;
+        Map<String, JsonNode> outputs = new HashMap<>();
+        Map<String, ObjectNode> stepResults = new HashMap<>();
+        for (List<McpPipelineStep> level : levels) {
+            // 展开同层所有调用后统一提交与等待，调用线程不在线程池内阻塞
+            List<PipelineCall> calls = new ArrayList<>();
+            Map<McpPipelineStep, List<PipelineCall>> stepCalls = new LinkedHashMap<>();
+            for (McpPipelineStep step : level) {
+                try {
+                    List<PipelineCall> callsOfStep = new ArrayList<>();
+                    for (ObjectNode arguments : resolvePipelineArguments(step, outputs)) {
+                        callsOfStep.add(new PipelineCall(step, arguments));
+                    }
+                    calls.addAll(callsOfStep);
+                    stepCalls.put(step, callsOfStep);
+                } catch (IllegalArgumentException e) {
+                    stepResults.put(step.getId(), buildPipelineStepError(step, e.getMessage()));
+                }
+            }
+            executePipelineCalls(calls, deadline);
+            for (Map.Entry<McpPipelineStep, List<PipelineCall>> stepCall : stepCalls.entrySet()) {
+                collectPipelineStep(stepCall.getKey(), stepCall.getValue(), outputs, stepResults);
+            }
+        }
+
+        ArrayNode stepsNode = response.putObject(McpConstants.JSON_RPC_RESULT).putArray("steps");
+        for (McpPipelineStep step : steps) {
+            stepsNode.add(stepResults.get(step.getId()));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+
+    private List<McpPipelineStep> parsePipelineSteps(JsonNode params) {
+        if (params == null || !params.has("steps") || !params.get("steps").isArray() || params.get("steps").size() == 0) {
+            throw new IllegalArgumentException("缺少steps数组");
+        }
+        JsonNode stepsNode = params.get("steps");
+        if (stepsNode.size() > McpConstants.PIPELINE_MAX_STEPS) {
+            throw new IllegalArgumentException("步骤数量超过上限 " + McpConstants.PIPELINE_MAX_STEPS);
+        }
+
+        Map<String, McpPipelineStep> steps = new LinkedHashMap<>();
+        for (JsonNode stepNode : stepsNode) {
+            if (!stepNode.hasNonNull("id") || !stepNode.hasNonNull("name")) {
+                throw new IllegalArgumentException("步骤必须包含id和name");
+            }
+            String id = stepNode.get("id").asText();
+            String toolName = stepNode.get("name").asText();
+            if (steps.containsKey(id)) {
+                throw new IllegalArgumentException("步骤ID重复: " + id);
+            }
+            McpFunctionInfo functionInfo = findFunction(toolName);
+            if (functionInfo == null || targetBean == null) {
+                throw new IllegalArgumentException("找不到指定的工具: " + toolName);
+            }
+            JsonNode arguments = stepNode.get("arguments");
+            if (arguments != null && !arguments.isObject()) {
+                throw new IllegalArgumentException("步骤 " + id + " 的arguments必须是对象");
+            }
+            steps.put(id, new McpPipelineStep(id, functionInfo, (ObjectNode) arguments, stepNode.get("forEach")));
+        }
+        return new ArrayList<>(steps.values());
+    }
+
+
+    /**
+     * 按依赖关系将步骤划分为多层，每层步骤只依赖前序层的结果。
+     *
+     * @param steps 流水线步骤
+     * @return 分层后的步骤
+     * @throws IllegalArgumentException 引用不存在、存在循环引用或深度超过上限时抛出
+     */
+    private List<List<McpPipelineStep>> planPipeline(List<McpPipelineStep> steps) {
+        Set<String> ids = new HashSet<>();
+        for (McpPipelineStep step : steps) {
+            ids.add(step.getId());
+        }
+        for (McpPipelineStep step : steps) {
+            for (String dependency : step.getDependencies()) {
+                if (!ids.contains(dependency)) {
+                    throw new IllegalArgumentException("步骤 " + step.getId() + " 引用了不存在的步骤 " + dependency);
+                }
+            }
+        }
+
+        List<List<McpPipelineStep>> levels = new ArrayList<>();
+        Set<String> planned = new HashSet<>();
+        List<McpPipelineStep> pending = new ArrayList<>(steps);
+        while (!pending.isEmpty()) {
+            List<McpPipelineStep> level = new ArrayList<>();
+            for (McpPipelineStep step : pending) {
+                if (planned.containsAll(step.getDependencies())) {
+                    level.add(step);
+                }
+            }
+            if (level.isEmpty()) {
+                throw new IllegalArgumentException("步骤之间存在循环引用");
+            }
+            if (levels.size() == McpConstants.PIPELINE_MAX_DEPTH) {
+                throw new IllegalArgumentException("流水线深度超过上限 " + McpConstants.PIPELINE_MAX_DEPTH);
+            }
+            for (McpPipelineStep step : level) {
+                planned.add(step.getId());
+            }
+            levels.add(level);
+            pending.removeAll(level);
+        }
+        return levels;
+    }
+
+
+    /**
+     * 解析步骤的实际调用参数，声明forEach时每个遍历元素生成一组参数。
+     *
+     * @param step 流水线步骤
+     * @param outputs 已完成步骤的返回值
+     * @return 调用参数列表
+     * @throws IllegalArgumentException 依赖步骤失败、引用无法解析或展开数量超过上限时抛出
+     */
+    private List<ObjectNode> resolvePipelineArguments(McpPipelineStep step, Map<String, JsonNode> outputs) {
+        for (String dependency : step.getDependencies()) {
+            if (!outputs.containsKey(dependency)) {
+                throw new IllegalArgumentException(String.format(McpConstants.ERROR_MSG_DEPENDENCY_FAILED, dependency));
+            }
+        }
+
+        List<JsonNode> items = new ArrayList<>();
+        if (step.getForEach() == null) {
+            items.add(null);
+        } else {
+            JsonNode source = resolvePipelineReference(
+                    outputs.get(McpPipelineStep.refOf(step.getForEach())), McpPipelineStep.pointerOf(step.getForEach()));
+            if (!source.isArray()) {
+                throw new IllegalArgumentException("forEach引用的结果不是数组");
+            }
+            if (source.size() > McpConstants.PIPELINE_MAX_FAN_OUT) {
+                throw new IllegalArgumentException("forEach展开数量超过上限 " + McpConstants.PIPELINE_MAX_FAN_OUT);
+            }
+            source.forEach(items::add);
+        }
+
+        List<ObjectNode> argumentsList = new ArrayList<>();
+        for (JsonNode item : items) {
+            ObjectNode arguments = objectMapper.createObjectNode();
+            if (step.getArguments() != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = step.getArguments().fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    JsonNode value = field.getValue();
+                    if (McpPipelineStep.isRef(value)) {
+                        String ref = McpPipelineStep.refOf(value);
+                        value = resolvePipelineReference(outputs.get(ref), McpPipelineStep.pointerOf(value));
+                        if (value.isNull()) {
+                            throw new IllegalArgumentException(
+                                    "引用的步骤 " + ref + " 输出为二进制或空值, 不能作为参数 " + field.getKey());
+                        }
+                    } else if (McpPipelineStep.isItem(value)) {
+                        value = resolvePipelineReference(item, McpPipelineStep.pointerOf(value));
+                        if (value.isNull()) {
+                            throw new IllegalArgumentException("引用的forEach元素为空值, 不能作为参数 " + field.getKey());
+                        }
+                    }
+                    if (value.isNull()) {
+                        continue;
+                    }
+                    // 工具参数均按字符串传递，对象和数组以JSON文本形式传入
+                    arguments.set(field.getKey(), value.isValueNode() ? value : TextNode.valueOf(value.toString()));
+                }
+            }
+            argumentsList.add(arguments);
+        }
+        return argumentsList;
+    }
+
+
+    private JsonNode resolvePipelineReference(JsonNode node, String pointer) {
+        JsonNode target = node.at(pointer);
+        if (target.isMissingNode()) {
+            throw new IllegalArgumentException("引用路径不存在: " + pointer);
+        }
+        return target;
+    }
+
+
+    /**
+     * 以滑动窗口方式执行同层调用，单个请求同时在途的调用数不超过{@link #pipelineMaxConcurrency}。
+     * 所有调用共享同一截止时间，超时的调用会被中断并记为失败，截止时间后尚未提交的调用不再执行。
+     *
+     * @param calls 同层的全部调用
+     * @param deadline 流水线截止时间
+     */
+    private void executePipelineCalls(List<PipelineCall> calls, long deadline) {
+        int submitted = 0;
+        for (int i = 0; i < calls.size(); i++) {
+            while (submitted < calls.size() && submitted - i < pipelineMaxConcurrency) {
+                PipelineCall call = calls.get(submitted++);
+                if (System.currentTimeMillis() < deadline) {
+                    call.future = pipelineExecutor.submit(() -> invokeTool(call.step.getFunction(), call.arguments));
+                }
+            }
+            awaitPipelineCall(calls.get(i), deadline);
+        }
+    }
+
+
+    private void awaitPipelineCall(PipelineCall call, long deadline) {
+        String toolName = call.step.getFunction().getName();
+        if (call.future == null) {
+            call.error = String.format(McpConstants.ERROR_MSG_PIPELINE_TIMEOUT, toolName, pipelineTimeoutMillis);
+            return;
+        }
+        try {
+            call.result = call.future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            call.future.cancel(true);
+            log.warn("步骤 {}: 工具 {} 执行超时", call.step.getId(), toolName);
+            call.error = String.format(McpConstants.ERROR_MSG_PIPELINE_TIMEOUT, toolName, pipelineTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            call.future.cancel(true);
+            call.error = String.format(McpConstants.ERROR_MSG_TOOL_EXECUTION, toolName, "执行被中断");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof InvocationTargetException
+                    ? ((InvocationTargetException) e.getCause()).getTargetException()
+                    : e.getCause();
+            if (cause instanceof McpMissingParamException) {
+                log.warn("步骤 {}: {}", call.step.getId(), cause.getMessage());
+                call.error = cause.getMessage();
+            } else {
+                log.error("工具 {} 执行时发生异常", toolName, cause);
+                call.error = String.format(McpConstants.ERROR_MSG_TOOL_EXECUTION, toolName, cause.getMessage());
+            }
+        }
+    }
+
+
+    private void collectPipelineStep(McpPipelineStep step, List<PipelineCall> calls,
+                                     Map<String, JsonNode> outputs, Map<String, ObjectNode> stepResults) {
+        for (PipelineCall call : calls) {
+            if (call.error != null) {
+                // 任一调用失败时整个步骤失败，同步关闭其余调用返回的输入流
+                for (PipelineCall sibling : calls) {
+                    closeBinaryResult(sibling.result);
+                }
+                stepResults.put(step.getId(), buildPipelineStepError(step, call.error));
+                return;
+            }
+        }
+
+        ArrayNode content = objectMapper.createArrayNode();
+        ArrayNode itemOutputs = objectMapper.createArrayNode();
+        for (PipelineCall call : calls) {
+            content.addAll(buildContent(step.getFunction(), call.result));
+            itemOutputs.add(toPipelineOutput(call.result));
+        }
+
+        JsonNode output = step.getForEach() != null ? itemOutputs : itemOutputs.get(0);
+        outputs.put(step.getId(), output);
+        ObjectNode stepResult = objectMapper.createObjectNode();
+        stepResult.put("id", step.getId());
+        stepResult.put("name", step.getFunction().getName());
+        stepResult.set("content", content);
+        // 返回可被$ref、$item引用的JSON结构，客户端据此编写pointer
+        if (!output.isNull()) {
+            stepResult.set("structuredContent", output);
+        }
+        stepResults.put(step.getId(), stepResult);
+    }
+
+
+    private void closeBinaryResult(Object result) {
+        if (result instanceof Closeable) {
+            try {
+                ((Closeable) result).close();
+            } catch (IOException e) {
+                log.warn("关闭工具返回的输入流失败: {}", e.getMessage());
+            }
+        }
+    }
+
+
+    /**
+     * 将工具返回值转换为可供后续步骤引用的JSON树，二进制结果不可引用
+     */
+    private JsonNode toPipelineOutput(Object result) {
+        if (result == null || McpBinaryContent.isBinary(result)) {
+            return NullNode.getInstance();
+        }
+        try {
+            return objectMapper.valueToTree(result);
+        } catch (IllegalArgumentException e) {
+            return TextNode.valueOf(result.toString());
+        }
+    }
+
+
+    private ObjectNode buildPipelineStepError(McpPipelineStep step, String message) {
+        ObjectNode stepResult = objectMapper.createObjectNode();
+        stepResult.put("id", step.getId());
+        stepResult.put("name", step.getFunction().getName());
+        stepResult.put("isError", true);
+        ObjectNode textContent = stepResult.putArray("content").addObject();
+        textContent.put("type", McpConstants.CONTENT_TYPE_TEXT);
+        textContent.put("text", message);
+        return stepResult;
+    }
+
+
+    private McpFunctionInfo findFunction(String toolName) {
+        for (McpFunctionInfo functionInfo : functionInfos) {
+            if (functionInfo.getName().equals(toolName)) {
+                return functionInfo;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * 绑定参数并反射调用工具函数。
+     *
+     * @param functionInfo 工具函数信息
+     * @param params 调用参数，可为null
+     * @return 工具返回值
+     * @throws McpMissingParamException 缺少必需参数时抛出
+     * @throws Exception 工具执行异常
+     */
+    private Object invokeTool(McpFunctionInfo functionInfo, ObjectNode params) throws Exception {
+        Method method = functionInfo.getMethod();
+        Parameter[] parameters = method.getParameters();
+        Object[] args = new Object[parameters.length];
+
+        for (int i = 0; i < parameters.length; i++) {
+            McpFunctionInfo.ParamInfo paramInfo = functionInfo.getParams().get(i);
+            String paramName = paramInfo.getName();
+
+            if (params != null && params.has(paramName)) {
+                args[i] = params.get(paramName).asText();
+            } else if (paramInfo.isRequired()) {
+                throw new McpMissingParamException(paramName);
+            }
+        }
+
+        return method.invoke(targetBean, args);
+    }
+
+
+    private ArrayNode buildContent(McpFunctionInfo functionInfo, Object result) {
+        if (McpBinaryContent.isBinary(result)) {
+            ArrayNode content = objectMapper.createArrayNode();
+            content.add(buildBinaryContent(functionInfo, result));
+            return content;
+        }
+        List<Map<String, Object>> content = new ArrayList<>();
+        Map<String, Object> textContent = new HashMap<>();
+        textContent.put("type", McpConstants.CONTENT_TYPE_TEXT);
+        textContent.put("text", result != null ? result.toString() : "");
+        content.add(textContent);
+
+        return objectMapper.valueToTree(content);
+    }
+
+    /**
+     * 构建二进制内容块。
+     * image/*类型生成image内容块，其余类型（包括audio/*）生成带blob的嵌入式resource内容块。
+     * Base64数据以{@link McpBinaryContent}延迟写入，在响应序列化时分块编码并直接输出。
+     *
+     * @param functionInfo 工具函数信息
+     * @param result 工具返回的二进制数据
+     * @return 内容块节点
+     */
+    private ObjectNode buildBinaryContent(McpFunctionInfo functionInfo, Object result) {
+        String mimeType = McpBinaryContent.resolveMimeType(result, functionInfo.getMimeType());
+        McpBinaryContent binaryContent = new McpBinaryContent(result, mimeType);
+
+        ObjectNode contentNode = objectMapper.createObjectNode();
+        // audio内容块不属于2024-11-05版本协议，音频与其他类型一样以嵌入式resource返回
+        if (mimeType.startsWith("image/")) {
+            contentNode.put("type", McpConstants.CONTENT_TYPE_IMAGE);
+            contentNode.putPOJO("data", binaryContent);
+            contentNode.put("mimeType", mimeType);
+        } else {
+            contentNode.put("type", McpConstants.CONTENT_TYPE_RESOURCE);
+            ObjectNode resource = contentNode.putObject("resource");
+            // 文件类型只暴露文件名，避免泄露服务器目录结构
+            resource.put("uri", result instanceof Path
+                    ? McpConstants.RESOURCE_URI_PREFIX + functionInfo.getName() + "/" + ((Path) result).getFileName()
+                    : McpConstants.RESOURCE_URI_PREFIX + functionInfo.getName());
+            resource.put("mimeType", mimeType);
+            resource.putPOJO("blob", binaryContent);
+        }
+        return contentNode;
+    }
+
+
+    /**
+     * 丢弃所有写入内容的HTTP输出消息，用于预热响应写出流程
+     */
+    private static class DiscardingHttpOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return DISCARDING_OUTPUT_STREAM;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+
+    /**
+     * 流水线中的单次工具调用，forEach步骤的每个元素对应一次调用
+     */
+    private static class PipelineCall {
+
+        private final McpPipelineStep step;
+        private final ObjectNode arguments;
+        private Future<Object> future;
+        private Object result;
+        private String error;
+
+        PipelineCall(McpPipelineStep step, ObjectNode arguments) {
+            this.step = step;
+            this.arguments = arguments;
+        }
+    }
 }
@@ -0,0 +1,262 @@
+package com.github.LouisCan.mcp.server.sdk.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.LouisCan.mcp.server.sdk.annotation.McpFunction;
+import com.github.LouisCan.mcp.server.sdk.annotation.McpParam;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link McpStreamableHttpHandler}工具流水线测试
+ */
+class McpStreamableHttpHandlerPipelineTest {
+
+    private McpStreamableHttpHandler handler;
+    private ThreadPoolTaskExecutor executor;
+    private PipelineTools tools;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setTaskDecorator(new McpPipelineTaskDecorator());
+        executor.initialize();
+
+        tools = new PipelineTools();
+        handler = new McpStreamableHttpHandler();
+        handler.setTargetBean(tools);
+        handler.setFunctionInfos(collectFunctions(PipelineTools.class));
+        handler.setPipelineExecutor(executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        LocaleContextHolder.resetLocaleContext();
+    }
+
+    @Test
+    void executesForEachStepsAgainstStructuredContent() throws Exception {
+        JsonNode steps = pipeline("["
+                + "{\"id\":\"items\",\"name\":\"list\",\"arguments\":{\"count\":\"2\"}},"
+                + "{\"id\":\"echo\",\"name\":\"echo\",\"forEach\":{\"$ref\":\"items\"},\"arguments\":{\"text\":{\"$item\":\"/name\"}}}"
+                + "]").get("result").get("steps");
+
+        assertEquals("item-1", steps.get(0).get("structuredContent").get(1).get("name").asText());
+        assertFalse(steps.get(1).has("isError"));
+        assertEquals("item-0", steps.get(1).get("content").get(0).get("text").asText());
+        assertEquals("item-1", steps.get(1).get("structuredContent").get(1).asText());
+    }
+
+    @Test
+    void rejectsCycle() throws Exception {
+        assertInvalidPipeline("["
+                + "{\"id\":\"a\",\"name\":\"echo\",\"arguments\":{\"text\":{\"$ref\":\"b\"}}},"
+                + "{\"id\":\"b\",\"name\":\"echo\",\"arguments\":{\"text\":{\"$ref\":\"a\"}}}"
+                + "]", "循环引用");
+    }
+
+    @Test
+    void rejectsUnknownReference() throws Exception {
+        assertInvalidPipeline("["
+                + "{\"id\":\"a\",\"name\":\"echo\",\"arguments\":{\"text\":{\"$ref\":\"missing\"}}}"
+                + "]", "不存在的步骤 missing");
+    }
+
+    @Test
+    void rejectsPipelineDeeperThanLimit() throws Exception {
+        StringBuilder steps = new StringBuilder("[{\"id\":\"s0\",\"name\":\"echo\",\"arguments\":{\"text\":\"x\"}}");
+        for (int i = 1; i <= McpConstants.PIPELINE_MAX_DEPTH; i++) {
+            steps.append(",{\"id\":\"s").append(i).append("\",\"name\":\"echo\",\"arguments\":{\"text\":{\"$ref\":\"s")
+                    .append(i - 1).append("\"}}}");
+        }
+        assertInvalidPipeline(steps.append("]").toString(), "深度超过上限");
+    }
+
+    @Test
+    void failsStepWhenForEachExceedsFanOutLimit() throws Exception {
+        JsonNode steps = pipeline("["
+                + "{\"id\":\"items\",\"name\":\"list\",\"arguments\":{\"count\":\"" + (McpConstants.PIPELINE_MAX_FAN_OUT + 1) + "\"}},"
+                + "{\"id\":\"echo\",\"name\":\"echo\",\"forEach\":{\"$ref\":\"items\"},\"arguments\":{\"text\":{\"$item\":\"/name\"}}}"
+                + "]").get("result").get("steps");
+
+        assertStepError(steps.get(1), "展开数量超过上限");
+    }
+
+    @Test
+    void propagatesDependencyFailure() throws Exception {
+        JsonNode steps = pipeline("["
+                + "{\"id\":\"f\",\"name\":\"fail\"},"
+                + "{\"id\":\"a\",\"name\":\"echo\",\"arguments\":{\"text\":{\"$ref\":\"f\"}}},"
+                + "{\"id\":\"b\",\"name\":\"echo\",\"arguments\":{\"text\":{\"$ref\":\"a\"}}}"
+                + "]").get("result").get("steps");
+
+        assertStepError(steps.get(0), "boom");
+        assertStepError(steps.get(1), "依赖步骤 f 执行失败");
+        assertStepError(steps.get(2), "依赖步骤 a 执行失败");
+    }
+
+    @Test
+    void rejectsReferenceToBinaryOutput() throws Exception {
+        JsonNode steps = pipeline("["
+                + "{\"id\":\"bin\",\"name\":\"binary\"},"
+                + "{\"id\":\"a\",\"name\":\"echo\",\"arguments\":{\"text\":{\"$ref\":\"bin\"}}}"
+                + "]").get("result").get("steps");
+
+        assertFalse(steps.get(0).has("structuredContent"));
+        assertStepError(steps.get(1), "输出为二进制或空值");
+    }
+
+    @Test
+    void rejectsReferenceToNullOutput() throws Exception {
+        JsonNode steps = pipeline("["
+                + "{\"id\":\"none\",\"name\":\"nothing\"},"
+                + "{\"id\":\"a\",\"name\":\"echo\",\"arguments\":{\"text\":{\"$ref\":\"none\"}}}"
+                + "]").get("result").get("steps");
+
+        assertStepError(steps.get(1), "输出为二进制或空值");
+    }
+
+    @Test
+    void reportsMissingParamAsArgumentError() throws Exception {
+        JsonNode steps = pipeline("[{\"id\":\"a\",\"name\":\"echo\"}]").get("result").get("steps");
+
+        assertStepError(steps.get(0), "缺少必需参数: text");
+        assertFalse(steps.get(0).get("content").get(0).get("text").asText().contains("执行时发生异常"));
+    }
+
+    @Test
+    void cancelsToolRunningPastTimeout() throws Exception {
+        handler.setPipelineTimeoutMillis(200);
+
+        long start = System.currentTimeMillis();
+        JsonNode steps = pipeline("[{\"id\":\"slow\",\"name\":\"sleep\"}]").get("result").get("steps");
+
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertStepError(steps.get(0), "未能在流水线超时时间 200 ms 内完成");
+        assertTrue(tools.interrupted.await(5, TimeUnit.SECONDS), "超时的工具调用应被中断");
+    }
+
+    @Test
+    void propagatesLocaleToPipelineThreads() throws Exception {
+        LocaleContextHolder.setLocale(Locale.GERMANY);
+
+        JsonNode steps = pipeline("[{\"id\":\"a\",\"name\":\"locale\"}]").get("result").get("steps");
+
+        assertEquals(Locale.GERMANY.toString(), steps.get(0).get("structuredContent").asText());
+    }
+
+    private ObjectNode pipeline(String steps) throws Exception {
+        String request = "{\"jsonrpc\":\"2.0\",\"id\":\"1\",\"method\":\"tools/pipeline\",\"params\":{\"steps\":" + steps + "}}";
+        return handler.handlePost(request).getBody().getBody();
+    }
+
+    private void assertInvalidPipeline(String steps, String message) throws Exception {
+        JsonNode error = pipeline(steps).get(McpConstants.JSON_RPC_ERROR);
+        assertEquals(McpConstants.ERROR_CODE_INVALID_PARAMS, error.get(McpConstants.JSON_RPC_CODE).asInt());
+        assertTrue(error.get(McpConstants.JSON_RPC_MESSAGE).asText().contains(message), error.toString());
+    }
+
+    private static void assertStepError(JsonNode step, String message) {
+        assertTrue(step.path("isError").asBoolean(), step.toString());
+        assertTrue(step.get("content").get(0).get("text").asText().contains(message), step.toString());
+    }
+
+    private static List<McpFunctionInfo> collectFunctions(Class<?> toolClass) {
+        List<McpFunctionInfo> functionInfos = new ArrayList<>();
+        for (Method method : toolClass.getDeclaredMethods()) {
+            McpFunction mcpFunction = method.getAnnotation(McpFunction.class);
+            if (mcpFunction == null) {
+                continue;
+            }
+            List<McpFunctionInfo.ParamInfo> paramInfos = new ArrayList<>();
+            for (Parameter parameter : method.getParameters()) {
+                McpParam mcpParam = parameter.getAnnotation(McpParam.class);
+                paramInfos.add(new McpFunctionInfo.ParamInfo(
+                        mcpParam.name(), mcpParam.description(), mcpParam.enums(), mcpParam.required()));
+            }
+            functionInfos.add(new McpFunctionInfo(mcpFunction.name(), mcpFunction.description(), method, paramInfos));
+        }
+        return functionInfos;
+    }
+
+    public static class PipelineTools {
+
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @McpFunction(name = "list", description = "生成指定数量的元素")
+        public List<Item> list(@McpParam(name = "count", description = "数量", required = true) String count) {
+            List<Item> items = new ArrayList<>();
+            for (int i = 0; i < Integer.parseInt(count); i++) {
+                items.add(new Item("item-" + i));
+            }
+            return items;
+        }
+
+        @McpFunction(name = "echo", description = "原样返回")
+        public String echo(@McpParam(name = "text", description = "文本", required = true) String text) {
+            return text;
+        }
+
+        @McpFunction(name = "fail", description = "总是失败")
+        public String fail() {
+            throw new IllegalStateException("boom");
+        }
+
+        @McpFunction(name = "binary", description = "返回二进制内容")
+        public byte[] binary() {
+            return new byte[]{1, 2, 3};
+        }
+
+        @McpFunction(name = "nothing", description = "返回null")
+        public String nothing() {
+            return null;
+        }
+
+        @McpFunction(name = "sleep", description = "长时间执行")
+        public String sleep() throws InterruptedException {
+            try {
+                Thread.sleep(10000);
+                return "done";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        }
+
+        @McpFunction(name = "locale", description = "返回当前区域")
+        public String locale() {
+            return LocaleContextHolder.getLocale().toString();
+        }
+    }
+
+    public static class Item {
+
+        private final String name;
+
+        public Item(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}